@@ -2,6 +2,7 @@
 package io.marioslab.basis.arguments;
 
 import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
@@ -29,6 +30,9 @@ import java.io.PrintStream;
  * </p>
  */
 public abstract class ArgumentWithValue<T> extends Argument {
+	/** The maximum number of values an {@link IntegerListArgument} or {@link LongListArgument} accepts after expanding ranges. **/
+	public static final int MAX_LIST_VALUES = 1 << 20;
+
 	private final String valueHelpName;
 
 	/** @param form the form of the argument, e.g. "-v".
@@ -198,4 +202,319 @@ public abstract class ArgumentWithValue<T> extends Argument {
 			return valueString;
 		}
 	}
+
+	/** An {@link ArgumentWithValue} expecting a size in bytes, e.g. "512", "64k", "64m", "1g", or "2tb". The units k, m, g, t and p
+	 * are case insensitive, may be followed by an optional "i" and "b", and denote multiples of 1024. The value is returned in
+	 * bytes. */
+	public static class ByteSizeArgument extends ArgumentWithValue<Long> {
+		/** @param form the form of the argument, e.g. "-v".
+		 * @param help the help text to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument.
+		 * @param valueHelpName the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this
+		 *           argument.
+		 * @param isOptional whether this argument is optional. */
+		public ByteSizeArgument (String form, String help, String valueHelpName, boolean isOptional) {
+			super(form, help, valueHelpName, isOptional);
+		}
+
+		/** @param forms the forms of the argument, e.g. "-v", "--verbose".
+		 * @param help the help text to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument.
+		 * @param valueHelpName the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this
+		 *           argument.
+		 * @param isOptional whether this argument is optional. */
+		public ByteSizeArgument (String[] forms, String help, String valueHelpName, boolean isOptional) {
+			super(forms, help, valueHelpName, isOptional);
+		}
+
+		@Override
+		public Long parseValue (String valueString) {
+			int end = skipDigits(valueString, 0);
+			if (end == 0) throw invalidValue(this, "a byte size", valueString);
+			long value = parseDigits(this, "a byte size", valueString, 0, end);
+
+			int shift = 0;
+			int index = end;
+			if (index < valueString.length()) {
+				switch (Character.toLowerCase(valueString.charAt(index))) {
+				case 'k':
+					shift = 10;
+					break;
+				case 'm':
+					shift = 20;
+					break;
+				case 'g':
+					shift = 30;
+					break;
+				case 't':
+					shift = 40;
+					break;
+				case 'p':
+					shift = 50;
+					break;
+				}
+				if (shift != 0) {
+					index++;
+					if (index < valueString.length() && Character.toLowerCase(valueString.charAt(index)) == 'i') index++;
+				}
+				if (index < valueString.length() && Character.toLowerCase(valueString.charAt(index)) == 'b') index++;
+			}
+			if (index != valueString.length() || value > Long.MAX_VALUE >> shift) throw invalidValue(this, "a byte size", valueString);
+			return value << shift;
+		}
+	}
+
+	/** An {@link ArgumentWithValue} expecting a duration, e.g. "250ms", "30s", or "1h30m". The units are ns, us, ms, s, m, h and d.
+	 * A duration may consist of several amounts, each followed by its unit. The value is returned in nanoseconds, see
+	 * {@link TimeUnit#NANOSECONDS}. */
+	public static class DurationArgument extends ArgumentWithValue<Long> {
+		/** @param form the form of the argument, e.g. "-v".
+		 * @param help the help text to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument.
+		 * @param valueHelpName the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this
+		 *           argument.
+		 * @param isOptional whether this argument is optional. */
+		public DurationArgument (String form, String help, String valueHelpName, boolean isOptional) {
+			super(form, help, valueHelpName, isOptional);
+		}
+
+		/** @param forms the forms of the argument, e.g. "-v", "--verbose".
+		 * @param help the help text to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument.
+		 * @param valueHelpName the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this
+		 *           argument.
+		 * @param isOptional whether this argument is optional. */
+		public DurationArgument (String[] forms, String help, String valueHelpName, boolean isOptional) {
+			super(forms, help, valueHelpName, isOptional);
+		}
+
+		@Override
+		public Long parseValue (String valueString) {
+			int length = valueString.length();
+			if (length == 0) throw invalidValue(this, "a duration", valueString);
+
+			long duration = 0;
+			int index = 0;
+			while (index < length) {
+				int end = skipDigits(valueString, index);
+				if (end == index) throw invalidValue(this, "a duration", valueString);
+				long amount = parseDigits(this, "a duration", valueString, index, end);
+				index = end;
+
+				char c = index < length ? Character.toLowerCase(valueString.charAt(index)) : 0;
+				char next = index + 1 < length ? Character.toLowerCase(valueString.charAt(index + 1)) : 0;
+				long nanos;
+				if (c == 'n' && next == 's') {
+					nanos = 1;
+					index += 2;
+				} else if (c == 'u' && next == 's') {
+					nanos = 1000L;
+					index += 2;
+				} else if (c == 'm' && next == 's') {
+					nanos = 1000L * 1000;
+					index += 2;
+				} else if (c == 's') {
+					nanos = 1000L * 1000 * 1000;
+					index++;
+				} else if (c == 'm') {
+					nanos = 60L * 1000 * 1000 * 1000;
+					index++;
+				} else if (c == 'h') {
+					nanos = 60L * 60 * 1000 * 1000 * 1000;
+					index++;
+				} else if (c == 'd') {
+					nanos = 24L * 60 * 60 * 1000 * 1000 * 1000;
+					index++;
+				} else {
+					throw invalidValue(this, "a duration", valueString);
+				}
+
+				if (amount > Long.MAX_VALUE / nanos || amount * nanos > Long.MAX_VALUE - duration)
+					throw invalidValue(this, "a duration", valueString);
+				duration += amount * nanos;
+			}
+			return duration;
+		}
+	}
+
+	/** An {@link ArgumentWithValue} expecting an inclusive range of integers, e.g. "8000-8010", or a single integer, e.g. "9000".
+	 * The value is returned as an array holding the start and end of the range. */
+	public static class RangeArgument extends ArgumentWithValue<int[]> {
+		/** @param form the form of the argument, e.g. "-v".
+		 * @param help the help text to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument.
+		 * @param valueHelpName the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this
+		 *           argument.
+		 * @param isOptional whether this argument is optional. */
+		public RangeArgument (String form, String help, String valueHelpName, boolean isOptional) {
+			super(form, help, valueHelpName, isOptional);
+		}
+
+		/** @param forms the forms of the argument, e.g. "-v", "--verbose".
+		 * @param help the help text to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument.
+		 * @param valueHelpName the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this
+		 *           argument.
+		 * @param isOptional whether this argument is optional. */
+		public RangeArgument (String[] forms, String help, String valueHelpName, boolean isOptional) {
+			super(forms, help, valueHelpName, isOptional);
+		}
+
+		@Override
+		public int[] parseValue (String valueString) {
+			int end = valueString.length();
+			int separator = rangeSeparator(valueString, 0, end);
+			int from = (int)parseInteger(this, "an integer range", valueString, 0, separator, Integer.MIN_VALUE, Integer.MAX_VALUE);
+			int to = separator == end ? from
+				: (int)parseInteger(this, "an integer range", valueString, separator + 1, end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+			if (from > to) throw invalidValue(this, "an integer range", valueString);
+			return new int[] {from, to};
+		}
+	}
+
+	/** An {@link ArgumentWithValue} expecting a comma separated list of integers and inclusive integer ranges, e.g.
+	 * "8000-8010,9000". Ranges are expanded, so the example is returned as an array holding 8000 to 8010 and 9000. At most
+	 * {@link ArgumentWithValue#MAX_LIST_VALUES} values are accepted. */
+	public static class IntegerListArgument extends ArgumentWithValue<int[]> {
+		/** @param form the form of the argument, e.g. "-v".
+		 * @param help the help text to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument.
+		 * @param valueHelpName the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this
+		 *           argument.
+		 * @param isOptional whether this argument is optional. */
+		public IntegerListArgument (String form, String help, String valueHelpName, boolean isOptional) {
+			super(form, help, valueHelpName, isOptional);
+		}
+
+		/** @param forms the forms of the argument, e.g. "-v", "--verbose".
+		 * @param help the help text to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument.
+		 * @param valueHelpName the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this
+		 *           argument.
+		 * @param isOptional whether this argument is optional. */
+		public IntegerListArgument (String[] forms, String help, String valueHelpName, boolean isOptional) {
+			super(forms, help, valueHelpName, isOptional);
+		}
+
+		@Override
+		public int[] parseValue (String valueString) {
+			int count = scanList(this, "a list of integers", valueString, Integer.MIN_VALUE, Integer.MAX_VALUE, null, null);
+			int[] values = new int[count];
+			scanList(this, "a list of integers", valueString, Integer.MIN_VALUE, Integer.MAX_VALUE, values, null);
+			return values;
+		}
+	}
+
+	/** An {@link ArgumentWithValue} expecting a comma separated list of 64-bit integers and inclusive ranges, e.g.
+	 * "8000-8010,9000". Ranges are expanded, so the example is returned as an array holding 8000 to 8010 and 9000. At most
+	 * {@link ArgumentWithValue#MAX_LIST_VALUES} values are accepted. */
+	public static class LongListArgument extends ArgumentWithValue<long[]> {
+		/** @param form the form of the argument, e.g. "-v".
+		 * @param help the help text to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument.
+		 * @param valueHelpName the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this
+		 *           argument.
+		 * @param isOptional whether this argument is optional. */
+		public LongListArgument (String form, String help, String valueHelpName, boolean isOptional) {
+			super(form, help, valueHelpName, isOptional);
+		}
+
+		/** @param forms the forms of the argument, e.g. "-v", "--verbose".
+		 * @param help the help text to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument.
+		 * @param valueHelpName the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this
+		 *           argument.
+		 * @param isOptional whether this argument is optional. */
+		public LongListArgument (String[] forms, String help, String valueHelpName, boolean isOptional) {
+			super(forms, help, valueHelpName, isOptional);
+		}
+
+		@Override
+		public long[] parseValue (String valueString) {
+			int count = scanList(this, "a list of integers", valueString, Long.MIN_VALUE, Long.MAX_VALUE, null, null);
+			long[] values = new long[count];
+			scanList(this, "a list of integers", valueString, Long.MIN_VALUE, Long.MAX_VALUE, null, values);
+			return values;
+		}
+	}
+
+	/** Returns the exception to raise if the value string of the argument is not of the expected kind. **/
+	private static ArgumentException invalidValue (ArgumentWithValue<?> argument, String expected, String valueString) {
+		return new ArgumentException("Could not parse value for argument " + argument.getForms()[0] + ". expected " + expected + ", got '" + valueString + "'");
+	}
+
+	/** Returns the index of the first character at or after the index that is not a decimal digit. **/
+	private static int skipDigits (String valueString, int index) {
+		while (index < valueString.length()) {
+			char c = valueString.charAt(index);
+			if (c < '0' || c > '9') break;
+			index++;
+		}
+		return index;
+	}
+
+	/** Parses the decimal digits between start and end, raising an {@link ArgumentException} if the value exceeds
+	 * {@link Long#MAX_VALUE}. **/
+	private static long parseDigits (ArgumentWithValue<?> argument, String expected, String valueString, int start, int end) {
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = valueString.charAt(i) - '0';
+			if (value > (Long.MAX_VALUE - digit) / 10) throw invalidValue(argument, expected, valueString);
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	/** Parses the integer with an optional leading "-" between start and end. The digits are accumulated negatively so
+	 * {@link Long#MIN_VALUE} can be parsed. Raises an {@link ArgumentException} if there are no digits, any other character, or the
+	 * value is not between min and max. **/
+	private static long parseInteger (ArgumentWithValue<?> argument, String expected, String valueString, int start, int end, long min,
+		long max) {
+		boolean isNegative = start < end && valueString.charAt(start) == '-';
+		int digitsStart = isNegative ? start + 1 : start;
+		if (digitsStart == end || skipDigits(valueString, digitsStart) < end) throw invalidValue(argument, expected, valueString);
+
+		long limit = isNegative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long value = 0;
+		for (int i = digitsStart; i < end; i++) {
+			int digit = valueString.charAt(i) - '0';
+			if (value < limit / 10) throw invalidValue(argument, expected, valueString);
+			value *= 10;
+			if (value < limit + digit) throw invalidValue(argument, expected, valueString);
+			value -= digit;
+		}
+		if (!isNegative) value = -value;
+		if (value < min || value > max) throw invalidValue(argument, expected, valueString);
+		return value;
+	}
+
+	/** Returns the index of the "-" separating the start and end of a range "from-to" between start and end, or end if there is
+	 * no such separator, i.e. the value is a single integer. **/
+	private static int rangeSeparator (String valueString, int start, int end) {
+		int index = start < end && valueString.charAt(start) == '-' ? start + 1 : start;
+		index = skipDigits(valueString, index);
+		return index < end && valueString.charAt(index) == '-' ? index : end;
+	}
+
+	/** Scans a comma separated list of integers and inclusive ranges between min and max. If ints or longs is not null, the
+	 * expanded values are stored in it. Returns the number of expanded values. Raises an {@link ArgumentException} if the list is
+	 * malformed or expands to more than {@link #MAX_LIST_VALUES} values. **/
+	private static int scanList (ArgumentWithValue<?> argument, String expected, String valueString, long min, long max, int[] ints, long[] longs) {
+		int count = 0;
+		int start = 0;
+		int length = valueString.length();
+		while (true) {
+			int end = valueString.indexOf(',', start);
+			if (end == -1) end = length;
+			int separator = rangeSeparator(valueString, start, end);
+			long from = parseInteger(argument, expected, valueString, start, separator, min, max);
+			long to = separator == end ? from : parseInteger(argument, expected, valueString, separator + 1, end, min, max);
+			// to - from is negative if it overflows.
+			if (from > to || to - from < 0 || to - from >= MAX_LIST_VALUES - count) throw invalidValue(argument, expected, valueString);
+
+			if (ints == null && longs == null) {
+				count += (int)(to - from + 1);
+			} else {
+				for (long value = from;; value++) {
+					if (ints != null) ints[count] = (int)value;
+					if (longs != null) longs[count] = value;
+					count++;
+					if (value == to) break;
+				}
+			}
+			if (end == length) break;
+			start = end + 1;
+		}
+		return count;
+	}
 }
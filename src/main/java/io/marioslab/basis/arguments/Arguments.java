@@ -3,13 +3,22 @@ package io.marioslab.basis.arguments;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
-
-/** Takes {@link Argument} and {@link ArgumentWithValue} instances and matches them with a list of command line argument strings
- * or prints a help text for all arguments. **/
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/** Takes {@link Argument}, {@link ArgumentWithValue} and {@link PositionalArgument} instances and matches them with a list of
+ * command line argument strings or prints a help text for all arguments. **/
 public class Arguments {
 	/** A parsed argument with and optional value. */
 	public class ParsedArgument {
@@ -26,6 +35,11 @@ public class Arguments {
 			this.value = null;
 		}
 
+		<T> ParsedArgument (PositionalArgument<T> argument, T value) {
+			this.argument = argument;
+			this.value = value;
+		}
+
 		/** Returns whether the argument is of the given form. **/
 		public boolean is (String form) {
 			for (String argForm : argument.getForms()) {
@@ -48,6 +62,15 @@ public class Arguments {
 			return (T)value;
 		}
 
+		/** Returns the parsed value for the positional argument, or throws an ArgumentException if the parsed argument and given
+		 * argument are not the same. **/
+		@SuppressWarnings("unchecked")
+		public <T> T getValue (PositionalArgument<T> argument) {
+			if (argument != this.argument) throw new ArgumentException(
+				"The provided argument " + argument.getForms()[0] + " does not match the parsed argument " + this.argument.getForms()[0] + ".");
+			return (T)value;
+		}
+
 		/** Returns the parsed value for the argument, or throws an ArgumentException if the parsed argument does not have the given
 		 * form. **/
 		@SuppressWarnings("unchecked")
@@ -61,16 +84,71 @@ public class Arguments {
 	/** Parsed arguments as returned by {@link Arguments#parse(String[])}. **/
 	public class ParsedArguments {
 		private final List<ParsedArgument> parsedArguments;
+		private final VariadicValues variadicValues;
 
-		ParsedArguments (List<ParsedArgument> parsedArguments) {
+		ParsedArguments (List<ParsedArgument> parsedArguments, VariadicValues variadicValues) {
 			this.parsedArguments = parsedArguments;
+			this.variadicValues = variadicValues;
 		}
 
-		/** Returns the parsed arguments in the order they occured in the input. **/
+		/** Returns the parsed arguments in the order they occured in the input, followed by the positional arguments with arity
+		 * {@link PositionalArgument.Arity#ONE} or {@link PositionalArgument.Arity#OPTIONAL}. The values of a variadic positional
+		 * argument are not included, see {@link #getValues(PositionalArgument)}. **/
 		public List<ParsedArgument> getParsedArguments () {
 			return parsedArguments;
 		}
 
+		/** Returns the value for the given positional argument with arity {@link PositionalArgument.Arity#ONE} or
+		 * {@link PositionalArgument.Arity#OPTIONAL}, or throws an {@link ArgumentException} if the value is not found. **/
+		public <T> T getValue (PositionalArgument<T> argument) {
+			for (ParsedArgument parsedArg : parsedArguments) {
+				if (parsedArg.is(argument)) {
+					return parsedArg.getValue(argument);
+				}
+			}
+			throw new ArgumentException("The argument " + argument.getForms()[0] + " was not found or does not have a value.");
+		}
+
+		/** Returns the values for the given variadic positional argument. The values are not copied, but parsed via
+		 * {@link PositionalArgument#parseValue(String)} when they are consumed from the returned iterable, which may raise an
+		 * {@link ArgumentException}. Throws an {@link ArgumentException} if the argument is not variadic or has not been added. **/
+		public <T> Iterable<T> getValues (PositionalArgument<T> argument) {
+			checkVariadic(argument);
+			return () -> new Iterator<T>() {
+				int index = variadicValues.start;
+
+				@Override
+				public boolean hasNext () {
+					return index < variadicValues.end;
+				}
+
+				@Override
+				public T next () {
+					if (!hasNext()) throw new NoSuchElementException();
+					return argument.parseValue(variadicValues.args[variadicValues.indices[index++]]);
+				}
+			};
+		}
+
+		/** Returns the values for the given variadic positional argument, copied into a single char array, see
+		 * {@link PackedValues}. Throws an {@link ArgumentException} if the argument is not variadic or has not been added. **/
+		public <T> PackedValues<T> getPackedValues (PositionalArgument<T> argument) {
+			checkVariadic(argument);
+			return new PackedValues<T>(argument, variadicValues.args, variadicValues.indices, variadicValues.start, variadicValues.end);
+		}
+
+		/** Returns the number of values given for the variadic positional argument. Throws an {@link ArgumentException} if the
+		 * argument is not variadic or has not been added. **/
+		public int getValueCount (PositionalArgument<?> argument) {
+			checkVariadic(argument);
+			return variadicValues.end - variadicValues.start;
+		}
+
+		private void checkVariadic (PositionalArgument<?> argument) {
+			if (variadicValues == null || variadicValues.argument != argument)
+				throw new ArgumentException("The argument " + argument.getForms()[0] + " is not a variadic positional argument that has been added.");
+		}
+
 		/** Returns the value for the given argument, or throws an {@link ArgumentException} if the value is not found. **/
 		public <T> T getValue (ArgumentWithValue<T> argument) {
 			for (ParsedArgument parsedArg : parsedArguments) {
@@ -97,6 +175,11 @@ public class Arguments {
 			for (ParsedArgument parsedArg : parsedArguments) {
 				if (parsedArg.is(form)) return true;
 			}
+			if (variadicValues != null && variadicValues.end > variadicValues.start) {
+				for (String argForm : variadicValues.argument.getForms()) {
+					if (argForm.equals(form)) return true;
+				}
+			}
 			return false;
 		}
 
@@ -105,14 +188,58 @@ public class Arguments {
 			for (ParsedArgument parsedArg : parsedArguments) {
 				if (parsedArg.is(argument)) return true;
 			}
-			return false;
+			return variadicValues != null && variadicValues.argument == argument && variadicValues.end > variadicValues.start;
+		}
+	}
+
+	/** The values of the variadic positional argument, given as the indices into args in the range [start, end). **/
+	private static class VariadicValues {
+		final PositionalArgument<?> argument;
+		final String[] args;
+		final int[] indices;
+		final int start;
+		final int end;
+
+		VariadicValues (PositionalArgument<?> argument, String[] args, int[] indices, int start, int end) {
+			this.argument = argument;
+			this.args = args;
+			this.indices = indices;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	/** A rule over the slots of added arguments, see {@link Arguments#addMutuallyExclusive(Argument...)},
+	 * {@link Arguments#addRequires(Argument, Argument...)} and {@link Arguments#addAtLeastOneOf(Argument...)}. The arguments a
+	 * constraint refers to are compiled to a bit mask, where bit i corresponds to the i-th added argument. **/
+	private static class Constraint {
+		enum Type {
+			MUTUALLY_EXCLUSIVE, REQUIRES, AT_LEAST_ONE_OF
+		}
+
+		final Type type;
+		final int slot;
+		final long[] mask;
+
+		Constraint (Type type, int slot, long[] mask) {
+			this.type = type;
+			this.slot = slot;
+			this.mask = mask;
 		}
 	}
 
 	private final List<BaseArgument> arguments = new ArrayList<>();
+	private final List<Constraint> constraints = new ArrayList<>();
+	private final List<PositionalArgument<?>> positionals = new ArrayList<>();
+	private long[] nonOptional = new long[1];
 
 	private void checkDuplicateForm (BaseArgument argument) {
-		for (BaseArgument other : arguments) {
+		checkDuplicateForm(argument, arguments);
+		checkDuplicateForm(argument, positionals);
+	}
+
+	private void checkDuplicateForm (BaseArgument argument, List<? extends BaseArgument> others) {
+		for (BaseArgument other : others) {
 			for (String otherForm : other.getForms()) {
 				for (String form : argument.getForms()) {
 					if (otherForm.equals(form)) throw new ArgumentException("An Argument with form " + form + " has already been added.");
@@ -128,80 +255,420 @@ public class Arguments {
 		return false;
 	}
 
-	/** Adds a new {@link Argument}. **/
-	public Argument addArgument (Argument argument) {
+	/** Adds the argument and assigns it the next slot, i.e. its bit index in the masks of {@link Constraint} instances. **/
+	private void add (BaseArgument argument) {
 		checkDuplicateForm(argument);
+		int slot = arguments.size();
 		arguments.add(argument);
+		if (!argument.isOptional()) {
+			if ((slot >>> 6) >= nonOptional.length)
+				nonOptional = Arrays.copyOf(nonOptional, Math.max(nonOptional.length * 2, (slot >>> 6) + 1));
+			nonOptional[slot >>> 6] |= 1L << slot;
+		}
+	}
+
+	/** Returns the slot of the given argument, or throws an {@link ArgumentException} if it has not been added. **/
+	private int slot (BaseArgument argument) {
+		for (int i = 0, n = arguments.size(); i < n; i++) {
+			if (arguments.get(i) == argument) return i;
+		}
+		throw new ArgumentException("The argument " + argument.getForms()[0] + " has not been added.");
+	}
+
+	/** Returns a bit mask with the slots of the given arguments set. **/
+	private long[] mask (Argument[] arguments) {
+		long[] mask = new long[(this.arguments.size() + 63) >>> 6];
+		for (Argument argument : arguments) {
+			int slot = slot(argument);
+			mask[slot >>> 6] |= 1L << slot;
+		}
+		return mask;
+	}
+
+	/** Adds a new {@link Argument}. **/
+	public Argument addArgument (Argument argument) {
+		add(argument);
 		return argument;
 	}
 
 	/** Adds a new {@link ArgumentWithValue}. **/
 	public <T extends ArgumentWithValue<V>, V> T addArgument (T argument) {
+		add(argument);
+		return argument;
+	}
+
+	/** Adds a new {@link PositionalArgument}. Positional arguments are assigned values in the order they are added. At most one
+	 * variadic positional argument can be added. **/
+	public <T> PositionalArgument<T> addArgument (PositionalArgument<T> argument) {
 		checkDuplicateForm(argument);
-		arguments.add(argument);
+		if (argument.isVariadic()) {
+			for (PositionalArgument<?> other : positionals) {
+				if (other.isVariadic()) throw new ArgumentException(
+					"Can not add variadic argument " + argument.getForms()[0] + ", variadic argument " + other.getForms()[0] + " has already been added.");
+			}
+		}
+		positionals.add(argument);
 		return argument;
 	}
 
+	/** Adds a constraint that at most one of the given arguments may be given. The arguments must have been added via
+	 * {@link #addArgument(Argument)} or {@link #addArgument(ArgumentWithValue)} before. **/
+	public void addMutuallyExclusive (Argument... arguments) {
+		if (arguments.length < 2) throw new ArgumentException("Expected at least two mutually exclusive arguments.");
+		constraints.add(new Constraint(Constraint.Type.MUTUALLY_EXCLUSIVE, -1, mask(arguments)));
+	}
+
+	/** Adds a constraint that all the required arguments must be given if the argument is given. The arguments must have been
+	 * added via {@link #addArgument(Argument)} or {@link #addArgument(ArgumentWithValue)} before. **/
+	public void addRequires (Argument argument, Argument... required) {
+		if (required.length < 1) throw new ArgumentException("Expected at least one argument required by " + argument.getForms()[0] + ".");
+		constraints.add(new Constraint(Constraint.Type.REQUIRES, slot(argument), mask(required)));
+	}
+
+	/** Adds a constraint that at least one of the given arguments must be given. The arguments must have been added via
+	 * {@link #addArgument(Argument)} or {@link #addArgument(ArgumentWithValue)} before. **/
+	public void addAtLeastOneOf (Argument... arguments) {
+		if (arguments.length < 2) throw new ArgumentException("Expected at least two arguments of which at least one must be given.");
+		constraints.add(new Constraint(Constraint.Type.AT_LEAST_ONE_OF, -1, mask(arguments)));
+	}
+
 	/** Parses the given arguments by matching them with the short or long form of {@link Argument} and {@link ArgumentWithValue}
-	 * instances added via {@link #addArgument(Argument)} and {@link #addArgument(ArgumentWithValue)}. In case a non-optional
+	 * instances added via {@link #addArgument(Argument)} and {@link #addArgument(ArgumentWithValue)}. Remaining arguments are
+	 * assigned to the {@link PositionalArgument} instances added via {@link #addArgument(PositionalArgument)}. In case a non-optional
 	 * argument is not matched, an {@link ArgumentException} is thrown with the message describing which non-optional arguments
-	 * have not been found. In case the value of an argument could not be parsed, an {@link ArgumentException} is thrown describing
-	 * why the value could not be parsed. In case a value for an argument with expected value is not found, an
+	 * have not been found. The same is true for violations of constraints added via {@link #addMutuallyExclusive(Argument...)},
+	 * {@link #addRequires(Argument, Argument...)} and {@link #addAtLeastOneOf(Argument...)}, where all violations are reported
+	 * together, one per line. In case the value of an argument could not be parsed, an {@link ArgumentException} is thrown
+	 * describing why the value could not be parsed. In case a value for an argument with expected value is not found, an
 	 * {@link ArgumentException} is thrown, with its message describing for which argument the value could not be found. */
-	@SuppressWarnings({"unchecked", "rawtypes"})
 	public ParsedArguments parse (String[] args) {
-		Set<BaseArgument> nonOptional = new HashSet<>();
-		for (BaseArgument arg : arguments) {
-			if (!arg.isOptional()) nonOptional.add(arg);
+		List<ParsedArgument> parsedArguments = new ArrayList<>();
+		VariadicValues variadicValues = match(args, parsedArguments, null, null);
+		return new ParsedArguments(parsedArguments, variadicValues);
+	}
+
+	/** Same as {@link #parse(String[])}, but parses the values of all matched {@link ArgumentWithValue} instances concurrently on
+	 * an executor returned by {@link #newValueExecutor()}, which is shut down before this method returns. Use this if some of your
+	 * {@link ArgumentWithValue#parseValue(String)} implementations perform I/O, e.g. checking whether a file exists. See
+	 * {@link #parse(String[], ExecutorService, long, TimeUnit)} for how errors are reported. */
+	public ParsedArguments parse (String[] args, long timeout, TimeUnit unit) {
+		ExecutorService executor = newValueExecutor();
+		try {
+			return parse(args, executor, timeout, unit);
+		} finally {
+			executor.shutdownNow();
 		}
+	}
+
+	/** Same as {@link #parse(String[])}, but parses the values of all matched {@link ArgumentWithValue} instances concurrently on
+	 * the given executor. All values must be parsed within the given timeout, otherwise the pending value parsers are cancelled.
+	 * Instead of failing on the first value that could not be parsed, all failures and timeouts are collected and reported via a
+	 * single {@link ArgumentException}, with one line per failure in its message. Unlike {@link #parse(String[])}, which lets
+	 * exceptions other than {@link ArgumentException} thrown by a value parser propagate as is, such exceptions are wrapped in an
+	 * {@link ArgumentException} with the original exception as its cause. Values are only parsed after all arguments have been
+	 * matched, so unknown arguments, missing non-optional arguments and constraint violations are reported before invalid
+	 * values. The executor is not shut down by this method. */
+	public ParsedArguments parse (String[] args, ExecutorService executor, long timeout, TimeUnit unit) {
+		List<BaseArgument> matched = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+		VariadicValues variadicValues = match(args, null, matched, values);
+
+		List<Future<Object>> futures = new ArrayList<>(matched.size());
+		try {
+			for (int i = 0, n = matched.size(); i < n; i++) {
+				BaseArgument arg = matched.get(i);
+				String value = values.get(i);
+				if (value != null) {
+					futures.add(executor.submit( () -> parseValue(arg, value)));
+				} else {
+					futures.add(null);
+				}
+			}
+		} catch (RejectedExecutionException e) {
+			for (Future<Object> f : futures)
+				if (f != null) f.cancel(true);
+			throw new ArgumentException("Could not schedule parsing of argument values.", e);
+		}
+
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		List<ParsedArgument> parsedArguments = new ArrayList<>(matched.size());
+		List<Throwable> errors = new ArrayList<>();
+		StringBuilder messages = new StringBuilder();
+		for (int i = 0, n = matched.size(); i < n; i++) {
+			BaseArgument arg = matched.get(i);
+			Future<Object> future = futures.get(i);
+			if (future == null) {
+				parsedArguments.add(newParsedArgument(arg, null));
+				continue;
+			}
+
+			Throwable error;
+			try {
+				Object value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+				parsedArguments.add(newParsedArgument(arg, value));
+				continue;
+			} catch (ExecutionException e) {
+				error = e.getCause();
+				if (!(error instanceof ArgumentException))
+					error = new ArgumentException("Could not parse value for argument " + arg.getForms()[0] + ": " + error.getMessage(), error);
+			} catch (TimeoutException e) {
+				future.cancel(true);
+				error = new ArgumentException("Could not parse value for argument " + arg.getForms()[0] + " within " + timeout + " "
+					+ unit.toString().toLowerCase() + ".", e);
+			} catch (InterruptedException e) {
+				for (Future<Object> f : futures)
+					if (f != null) f.cancel(true);
+				Thread.currentThread().interrupt();
+				throw new ArgumentException("Interrupted while parsing argument values.", e);
+			}
+			if (errors.size() > 0) messages.append("\n");
+			messages.append(error.getMessage());
+			errors.add(error);
+		}
+
+		if (errors.size() > 0) {
+			ArgumentException exception = new ArgumentException(messages.toString(), errors.get(0));
+			for (int i = 1, n = errors.size(); i < n; i++)
+				exception.addSuppressed(errors.get(i));
+			throw exception;
+		}
+		return new ParsedArguments(parsedArguments, variadicValues);
+	}
+
+	/** Parses the value of an {@link ArgumentWithValue} or {@link PositionalArgument}. **/
+	private static Object parseValue (BaseArgument arg, String value) {
+		if (arg instanceof PositionalArgument) return ((PositionalArgument<?>)arg).parseValue(value);
+		return ((ArgumentWithValue<?>)arg).parseValue(value);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private ParsedArgument newParsedArgument (BaseArgument arg, Object value) {
+		if (arg instanceof PositionalArgument) return new ParsedArgument((PositionalArgument)arg, value);
+		if (arg instanceof ArgumentWithValue) return new ParsedArgument((ArgumentWithValue)arg, value);
+		return new ParsedArgument((Argument)arg);
+	}
+
+	/** Returns a new executor to parse argument values with in {@link #parse(String[], ExecutorService, long, TimeUnit)}. Each value
+	 * is parsed on its own virtual thread if the JDK supports them, or on a daemon thread from a cached thread pool otherwise. **/
+	public static ExecutorService newValueExecutor () {
+		try {
+			// Looked up reflectively, as virtual threads are only available on JDK 21+.
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService)method.invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "basis-arguments-value");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/** Matches the given arguments with the forms of the added arguments. If parsedArguments is not null, the value of each match is
+	 * parsed right away and the match is added to parsedArguments. Otherwise, the argument is added to matched, and its unparsed
+	 * value, or null if it does not expect one, to values. Arguments not matching any form are assigned to the positional
+	 * arguments. Those with arity {@link PositionalArgument.Arity#ONE} or {@link PositionalArgument.Arity#OPTIONAL} are added like
+	 * matches, the values of a variadic positional argument are returned. Throws an {@link ArgumentException} for unknown
+	 * arguments, missing values, missing non-optional arguments and constraint violations. **/
+	private VariadicValues match (String[] args, List<ParsedArgument> parsedArguments, List<BaseArgument> matched, List<String> values) {
+		long[] given = new long[(arguments.size() + 63) >>> 6];
+		int[] positionalIndices = positionals.isEmpty() ? null : new int[Math.min(args.length, 16)];
+		int numPositionals = 0;
+		boolean isOptionsEnd = false;
 
-		List<ParsedArgument> parsedArguments = new ArrayList<>();
 		int index = 0;
 		while (index < args.length) {
 			String a = args[index++];
 
-			boolean matched = false;
-			for (BaseArgument arg : arguments) {
-				if (formMatches(arg, a)) {
-					matched = true;
-
-					if (!arg.isOptional()) nonOptional.remove(arg);
-
-					if (arg instanceof ArgumentWithValue) {
-						if (index >= args.length) throw new ArgumentException("Expected value for argument " + a + ", but no value was given.");
-						parsedArguments.add(new ParsedArgument((ArgumentWithValue)arg, ((ArgumentWithValue)arg).parseValue(args[index++])));
-					} else {
-						parsedArguments.add(new ParsedArgument((Argument)arg));
+			boolean isMatched = false;
+			if (!isOptionsEnd) {
+				for (int slot = 0, n = arguments.size(); slot < n; slot++) {
+					BaseArgument arg = arguments.get(slot);
+					if (formMatches(arg, a)) {
+						isMatched = true;
+						given[slot >>> 6] |= 1L << slot;
+
+						String value = null;
+						if (arg instanceof ArgumentWithValue) {
+							if (index >= args.length) throw new ArgumentException("Expected value for argument " + a + ", but no value was given.");
+							value = args[index++];
+						}
+						addMatch(arg, value, parsedArguments, matched, values);
+						break;
 					}
-					break;
 				}
 			}
 
-			if (!matched) {
-				throw new ArgumentException("Unknown argument " + a);
+			if (!isMatched) {
+				if (positionalIndices == null) throw new ArgumentException("Unknown argument " + a);
+				if (!isOptionsEnd && a.startsWith("-") && a.length() > 1) {
+					if (!"--".equals(a)) throw new ArgumentException("Unknown argument " + a);
+					isOptionsEnd = true;
+					continue;
+				}
+				if (numPositionals == positionalIndices.length)
+					positionalIndices = Arrays.copyOf(positionalIndices, Math.min(args.length, positionalIndices.length * 2));
+				positionalIndices[numPositionals++] = index - 1;
 			}
 		}
 
-		if (nonOptional.size() > 0) {
+		checkConstraints(given);
+		if (positionalIndices == null) return null;
+		return assignPositionals(args, positionalIndices, numPositionals, parsedArguments, matched, values);
+	}
+
+	/** Adds the matched argument and its value, see {@link #match(String[], List, List, List)}. **/
+	private void addMatch (BaseArgument arg, String value, List<ParsedArgument> parsedArguments, List<BaseArgument> matched, List<String> values) {
+		if (parsedArguments != null) {
+			parsedArguments.add(newParsedArgument(arg, value == null ? null : parseValue(arg, value)));
+		} else {
+			matched.add(arg);
+			values.add(value);
+		}
+	}
+
+	/** Assigns the arguments at the given indices to the positional arguments in the order they were added. Optional positional
+	 * arguments only receive a value if all positional arguments following them have received their minimum number of values. A
+	 * variadic positional argument receives all values left over after that. **/
+	private VariadicValues assignPositionals (String[] args, int[] indices, int numIndices, List<ParsedArgument> parsedArguments,
+		List<BaseArgument> matched, List<String> values) {
+		int numRequired = 0;
+		for (PositionalArgument<?> positional : positionals) {
+			if (!positional.isOptional()) numRequired++;
+		}
+
+		if (numIndices < numRequired) {
 			StringBuilder builder = new StringBuilder();
-			int i = 0;
-			for (BaseArgument arg : nonOptional) {
-				builder.append(arg.getForms()[0]);
-				if (i < nonOptional.size() - 1) builder.append(", ");
-				i++;
+			int numMissing = numRequired - numIndices;
+			for (int i = positionals.size() - 1; i >= 0 && numMissing > 0; i--) {
+				PositionalArgument<?> positional = positionals.get(i);
+				if (positional.isOptional()) continue;
+				if (builder.length() > 0) builder.insert(0, ", ");
+				builder.insert(0, positional.getForms()[0]);
+				numMissing--;
+			}
+			throw new ArgumentException("Expected the following positional arguments: " + builder.toString() + ".");
+		}
+
+		VariadicValues variadicValues = null;
+		int numExtra = numIndices - numRequired;
+		int index = 0;
+		for (PositionalArgument<?> positional : positionals) {
+			int count = positional.isOptional() ? 0 : 1;
+			if (positional.isVariadic()) {
+				count += numExtra;
+				numExtra = 0;
+				variadicValues = new VariadicValues(positional, args, indices, index, index + count);
+			} else {
+				if (positional.getArity() == PositionalArgument.Arity.OPTIONAL && numExtra > 0) {
+					count++;
+					numExtra--;
+				}
+				if (count > 0) addMatch(positional, args[indices[index]], parsedArguments, matched, values);
+			}
+			index += count;
+		}
+
+		if (index < numIndices) throw new ArgumentException("Unknown argument " + args[indices[index]]);
+		return variadicValues;
+	}
+
+	/** Checks the non-optional arguments and all constraints against the slots of the given arguments. Throws an
+	 * {@link ArgumentException} listing all violations, one per line. **/
+	private void checkConstraints (long[] given) {
+		StringBuilder builder = null;
+
+		if (countMissing(nonOptional, given) > 0) {
+			builder = new StringBuilder();
+			builder.append("Expected the following non-optional arguments: ");
+			appendForms(builder, nonOptional, given, false);
+			builder.append(".");
+		}
+
+		for (int i = 0, n = constraints.size(); i < n; i++) {
+			Constraint constraint = constraints.get(i);
+			long[] mask = constraint.mask;
+			switch (constraint.type) {
+			case MUTUALLY_EXCLUSIVE:
+				if (countGiven(mask, given) <= 1) continue;
+				builder = newLine(builder);
+				builder.append("The following arguments can not be given together: ");
+				appendForms(builder, mask, given, true);
+				builder.append(".");
+				break;
+			case REQUIRES:
+				if ((given[constraint.slot >>> 6] & (1L << constraint.slot)) == 0 || countMissing(mask, given) == 0) continue;
+				builder = newLine(builder);
+				builder.append("Argument ").append(arguments.get(constraint.slot).getForms()[0]).append(" requires the following arguments: ");
+				appendForms(builder, mask, given, false);
+				builder.append(".");
+				break;
+			case AT_LEAST_ONE_OF:
+				if (countGiven(mask, given) > 0) continue;
+				builder = newLine(builder);
+				builder.append("Expected at least one of the following arguments: ");
+				appendForms(builder, mask, given, false);
+				builder.append(".");
+				break;
 			}
-			throw new ArgumentException("Expected the following non-optional arguments: " + builder.toString() + ".");
 		}
-		return new ParsedArguments(parsedArguments);
+
+		if (builder != null) throw new ArgumentException(builder.toString());
+	}
+
+	/** Returns the number of slots set in both the mask and the given slots. **/
+	private static int countGiven (long[] mask, long[] given) {
+		int count = 0;
+		for (int i = 0; i < mask.length; i++) {
+			count += Long.bitCount(mask[i] & given[i]);
+		}
+		return count;
+	}
+
+	/** Returns the number of slots set in the mask but not in the given slots. **/
+	private static int countMissing (long[] mask, long[] given) {
+		int count = 0;
+		for (int i = 0, n = Math.min(mask.length, given.length); i < n; i++) {
+			count += Long.bitCount(mask[i] & ~given[i]);
+		}
+		return count;
+	}
+
+	/** Appends the first form of each argument whose slot is set in the mask and, depending on isGiven, is or is not set in the
+	 * given slots, separated by ", ". **/
+	private void appendForms (StringBuilder builder, long[] mask, long[] given, boolean isGiven) {
+		boolean isFirst = true;
+		for (int i = 0, n = Math.min(mask.length, given.length); i < n; i++) {
+			long bits = mask[i] & (isGiven ? given[i] : ~given[i]);
+			while (bits != 0) {
+				int slot = (i << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				if (!isFirst) builder.append(", ");
+				builder.append(arguments.get(slot).getForms()[0]);
+				isFirst = false;
+			}
+		}
+	}
+
+	private static StringBuilder newLine (StringBuilder builder) {
+		if (builder == null) return new StringBuilder();
+		return builder.append("\n");
 	}
 
 	/** Outputs the help text of each argument in the order they were added with {@link #addArgument(Argument)} and
-	 * {@link #addArgument(ArgumentWithValue, ArgumentWithValueMatchedCallback)}. Uses the values returned by
-	 * {@link Argument#getHelpText()} and {@link ArgumentWithValue#getValueHelpText()}. **/
+	 * {@link #addArgument(ArgumentWithValue, ArgumentWithValueMatchedCallback)}, followed by the positional arguments added with
+	 * {@link #addArgument(PositionalArgument)}. Uses the values returned by {@link Argument#getHelpText()} and
+	 * {@link ArgumentWithValue#getValueHelpText()}. **/
 	public void printHelp (PrintStream stream) {
-		for (BaseArgument arg : arguments) {
-			String[] formTexts = new String[arg.getForms().length];
+		List<BaseArgument> all = new ArrayList<>(arguments);
+		all.addAll(positionals);
+		for (BaseArgument arg : all) {
 			String[] forms = arg.getForms();
+			if (arg instanceof PositionalArgument) {
+				PositionalArgument<?> positional = (PositionalArgument<?>)arg;
+				forms = new String[] {positional.getValueHelpText() + (positional.isVariadic() ? "..." : "")};
+			}
+			String[] formTexts = new String[forms.length];
 
 			boolean helpTextOnOwnLine = false;
 			for (int i = 0, n = formTexts.length; i < n; i++) {
@@ -236,8 +703,9 @@ public class Arguments {
 	}
 
 	/** Returns the help text of each argument in the order they were added with {@link #addArgument(Argument)} and
-	 * {@link #addArgument(ArgumentWithValue, ArgumentWithValueMatchedCallback)} as a String. Uses the values returned by
-	 * {@link Argument#getHelpText()} and {@link ArgumentWithValue#getValueHelpText()}. **/
+	 * {@link #addArgument(ArgumentWithValue, ArgumentWithValueMatchedCallback)}, followed by the positional arguments added with
+	 * {@link #addArgument(PositionalArgument)}, as a String. Uses the values returned by {@link Argument#getHelpText()} and
+	 * {@link ArgumentWithValue#getValueHelpText()}. **/
 	public String printHelp () {
 		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
 		PrintStream out = new PrintStream(bytes);
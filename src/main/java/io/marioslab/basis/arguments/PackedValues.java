@@ -0,0 +1,100 @@
+package io.marioslab.basis.arguments;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import io.marioslab.basis.arguments.Arguments.ParsedArguments;
+
+/**
+ * <p>
+ * The unparsed values of a variadic {@link PositionalArgument} as returned by
+ * {@link ParsedArguments#getPackedValues(PositionalArgument)}.
+ * </p>
+ *
+ * <p>
+ * Instead of one String per value, the characters of all values are stored back to back in a single char array. The value at
+ * index i starts at {@link #getOffset(int)} and spans {@link #getLength(int)} characters. Use {@link #getString(int)} or
+ * {@link #getValue(int)} to materialize individual values.
+ * </p>
+ */
+public class PackedValues<T> implements Iterable<T> {
+	private final PositionalArgument<T> argument;
+	private final char[] chars;
+	private final int[] offsets;
+
+	PackedValues (PositionalArgument<T> argument, String[] args, int[] indices, int start, int end) {
+		this.argument = argument;
+		int length = 0;
+		for (int i = start; i < end; i++) {
+			length += args[indices[i]].length();
+		}
+
+		chars = new char[length];
+		offsets = new int[end - start + 1];
+		int offset = 0;
+		for (int i = start; i < end; i++) {
+			String value = args[indices[i]];
+			value.getChars(0, value.length(), chars, offset);
+			offsets[i - start] = offset;
+			offset += value.length();
+		}
+		offsets[end - start] = offset;
+	}
+
+	/** Returns the number of values. **/
+	public int size () {
+		return offsets.length - 1;
+	}
+
+	/** Returns the array holding the characters of all values. Must not be modified. **/
+	public char[] getChars () {
+		return chars;
+	}
+
+	/** Returns the offset of the first character of the value at the given index in {@link #getChars()}. **/
+	public int getOffset (int index) {
+		checkIndex(index);
+		return offsets[index];
+	}
+
+	/** Returns the number of characters of the value at the given index. **/
+	public int getLength (int index) {
+		checkIndex(index);
+		return offsets[index + 1] - offsets[index];
+	}
+
+	/** Returns the unparsed value at the given index as a new String. **/
+	public String getString (int index) {
+		checkIndex(index);
+		return new String(chars, offsets[index], offsets[index + 1] - offsets[index]);
+	}
+
+	/** Returns the value at the given index, parsed via {@link PositionalArgument#parseValue(String)}. Raises a
+	 * {@link ArgumentException} if the value could not be parsed. **/
+	public T getValue (int index) {
+		return argument.parseValue(getString(index));
+	}
+
+	/** Returns an iterator that parses each value via {@link PositionalArgument#parseValue(String)} when it is consumed. **/
+	@Override
+	public Iterator<T> iterator () {
+		return new Iterator<T>() {
+			int index;
+
+			@Override
+			public boolean hasNext () {
+				return index < size();
+			}
+
+			@Override
+			public T next () {
+				if (!hasNext()) throw new NoSuchElementException();
+				return getValue(index++);
+			}
+		};
+	}
+
+	private void checkIndex (int index) {
+		if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index " + index + ", size " + size());
+	}
+}
@@ -0,0 +1,100 @@
+package io.marioslab.basis.arguments;
+
+import java.io.PrintStream;
+
+import io.marioslab.basis.arguments.Arguments.ParsedArguments;
+
+/**
+ * <p>
+ * Defines a positional argument, e.g. the files in "tool -v file1 file2", that can be parsed via {@link Arguments#parse(String[])}
+ * or for which help can be displayed via {@link Arguments#printHelp(PrintStream)}.
+ * </p>
+ *
+ * <p>
+ * A positional argument wraps an {@link ArgumentWithValue} which is used to parse its values, e.g. a
+ * {@link ArgumentWithValue.StringArgument} for file names. The first form of the wrapped argument is the name of the positional
+ * argument, e.g. "files", which is used in error messages and by {@link ParsedArguments#getValue(String)}. Its value help text,
+ * e.g. "&lt;file&gt;", is displayed by {@link Arguments#printHelp(PrintStream)}. Whether the wrapped argument is optional is
+ * ignored, the {@link Arity} of the positional argument defines that instead.
+ * </p>
+ *
+ * <p>
+ * Any token that does not match the form of an {@link Argument} or {@link ArgumentWithValue} is assigned to the positional
+ * arguments in the order they were added. Tokens starting with "-" are still reported as unknown arguments, unless they follow a
+ * "--" token.
+ * </p>
+ *
+ * <p>
+ * A positional argument with arity {@link Arity#ONE} or {@link Arity#OPTIONAL} is parsed like any other argument with value. The
+ * values of a variadic positional argument are not parsed by {@link Arguments#parse(String[])}. Instead, they are parsed lazily
+ * while iterating the values returned by {@link ParsedArguments#getValues(PositionalArgument)}, or copied into compact storage by
+ * {@link ParsedArguments#getPackedValues(PositionalArgument)}.
+ * </p>
+ */
+public class PositionalArgument<T> extends BaseArgument {
+	/** The number of values a {@link PositionalArgument} accepts. **/
+	public enum Arity {
+		/** Exactly one value. **/
+		ONE,
+		/** Zero or one value. **/
+		OPTIONAL,
+		/** Any number of values. **/
+		ZERO_OR_MORE,
+		/** At least one value. **/
+		ONE_OR_MORE;
+	}
+
+	private final ArgumentWithValue<T> value;
+	private final Arity arity;
+
+	/** @param value the argument used to parse the values of this positional argument. Its first form is used as the name of this
+	 *           positional argument.
+	 * @param arity the number of values this positional argument accepts. */
+	public PositionalArgument (ArgumentWithValue<T> value, Arity arity) {
+		super(value.getForms(), value.getHelpText(), arity == Arity.OPTIONAL || arity == Arity.ZERO_OR_MORE);
+		this.value = value;
+		this.arity = arity;
+	}
+
+	/** Returns the number of values this positional argument accepts. **/
+	public Arity getArity () {
+		return arity;
+	}
+
+	/** Returns whether this positional argument accepts any number of values. **/
+	public boolean isVariadic () {
+		return arity == Arity.ZERO_OR_MORE || arity == Arity.ONE_OR_MORE;
+	}
+
+	/** Returns the name for the expected value to be displayed by {@link Arguments#printHelp(PrintStream)} for this argument. **/
+	public String getValueHelpText () {
+		return value.getValueHelpText();
+	}
+
+	/** Parses and returns the value string into a Java type via the wrapped {@link ArgumentWithValue}. Raises a
+	 * {@link ArgumentException} if the value could not be parsed. */
+	public T parseValue (String valueString) {
+		return value.parseValue(valueString);
+	}
+
+	@Override
+	public int hashCode () {
+		final int prime = 31;
+		int result = super.hashCode();
+		result = prime * result + value.hashCode();
+		result = prime * result + arity.hashCode();
+		return result;
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public boolean equals (Object obj) {
+		if (this == obj) return true;
+		if (!super.equals(obj)) return false;
+		if (getClass() != obj.getClass()) return false;
+		PositionalArgument other = (PositionalArgument)obj;
+		if (!value.equals(other.value)) return false;
+		if (arity != other.arity) return false;
+		return true;
+	}
+}
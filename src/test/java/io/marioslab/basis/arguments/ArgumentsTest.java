@@ -1,18 +1,30 @@
 
 package io.marioslab.basis.arguments;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import io.marioslab.basis.arguments.ArgumentWithValue.BooleanArgument;
+import io.marioslab.basis.arguments.ArgumentWithValue.ByteSizeArgument;
+import io.marioslab.basis.arguments.ArgumentWithValue.DurationArgument;
 import io.marioslab.basis.arguments.ArgumentWithValue.FloatArgument;
 import io.marioslab.basis.arguments.ArgumentWithValue.IntegerArgument;
+import io.marioslab.basis.arguments.ArgumentWithValue.IntegerListArgument;
+import io.marioslab.basis.arguments.ArgumentWithValue.LongListArgument;
+import io.marioslab.basis.arguments.ArgumentWithValue.RangeArgument;
 import io.marioslab.basis.arguments.ArgumentWithValue.StringArgument;
 import io.marioslab.basis.arguments.Arguments.ParsedArguments;
+import io.marioslab.basis.arguments.PositionalArgument.Arity;
 
 public class ArgumentsTest {
 	@Test
@@ -77,6 +89,69 @@ public class ArgumentsTest {
 		assertEquals("This is a test", parsed.getValue("--ddd"));
 	}
 
+	@Test
+	public void testUnitArguments () {
+		Arguments args = new Arguments();
+
+		ByteSizeArgument a = args.addArgument(new ByteSizeArgument("-a", "A.", "<size>", false));
+		DurationArgument b = args.addArgument(new DurationArgument("-b", "B.", "<duration>", false));
+		RangeArgument c = args.addArgument(new RangeArgument("-c", "C.", "<range>", false));
+		IntegerListArgument d = args.addArgument(new IntegerListArgument("-d", "D.", "<list>", false));
+		LongListArgument e = args.addArgument(new LongListArgument("-e", "E.", "<list>", false));
+
+		ParsedArguments parsed = args.parse(new String[] {"-a", "64g", "-b", "1h30m250ms", "-c", "-5--3", "-d", "8000-8003,9000", "-e", "-9223372036854775808,5"});
+
+		assertEquals((Long)(64L << 30), parsed.getValue(a));
+		assertEquals((Long)(TimeUnit.MINUTES.toNanos(90) + TimeUnit.MILLISECONDS.toNanos(250)), parsed.getValue(b));
+		assertArrayEquals(new int[] {-5, -3}, parsed.getValue(c));
+		assertArrayEquals(new int[] {8000, 8001, 8002, 8003, 9000}, parsed.getValue(d));
+		assertArrayEquals(new long[] {Long.MIN_VALUE, 5}, parsed.getValue(e));
+
+		assertEquals((Long)512L, a.parseValue("512"));
+		assertEquals((Long)(2L << 10), a.parseValue("2KiB"));
+		assertEquals((Long)(3L << 20), a.parseValue("3mb"));
+		assertEquals((Long)25L, b.parseValue("25ns"));
+		assertEquals((Long)TimeUnit.DAYS.toNanos(2), b.parseValue("2d"));
+		assertArrayEquals(new int[] {9000, 9000}, c.parseValue("9000"));
+	}
+
+	@Test
+	public void testUnitArgumentsInvalid () {
+		ByteSizeArgument a = new ByteSizeArgument("-a", "A.", "<size>", false);
+		DurationArgument b = new DurationArgument("-b", "B.", "<duration>", false);
+		RangeArgument c = new RangeArgument("-c", "C.", "<range>", false);
+		IntegerListArgument d = new IntegerListArgument("-d", "D.", "<list>", false);
+		LongListArgument e = new LongListArgument("-e", "E.", "<list>", false);
+
+		assertInvalid("Could not parse value for argument -a. expected a byte size, got '8192p'", a, "8192p");
+		assertInvalid("Could not parse value for argument -a. expected a byte size, got '12x'", a, "12x");
+		assertInvalid("Could not parse value for argument -a. expected a byte size, got ''", a, "");
+		assertInvalid("Could not parse value for argument -b. expected a duration, got '250'", b, "250");
+		assertInvalid("Could not parse value for argument -b. expected a duration, got '1h30'", b, "1h30");
+		assertInvalid("Could not parse value for argument -b. expected a duration, got '99999999999d'", b, "99999999999d");
+		assertInvalid("Could not parse value for argument -c. expected an integer range, got '10-5'", c, "10-5");
+		assertInvalid("Could not parse value for argument -c. expected an integer range, got '1-2-3'", c, "1-2-3");
+		assertInvalid("Could not parse value for argument -d. expected a list of integers, got '1,,2'", d, "1,,2");
+		assertInvalid("Could not parse value for argument -d. expected a list of integers, got '2147483648'", d, "2147483648");
+		assertInvalid("Could not parse value for argument -d. expected a list of integers, got '0-2147483647'", d, "0-2147483647");
+		assertInvalid("Could not parse value for argument -d. expected a list of integers, got '0-2000000000'", d, "0-2000000000");
+		assertInvalid("Could not parse value for argument -d. expected a list of integers, got '0-600000,0-600000'", d, "0-600000,0-600000");
+		assertInvalid("Could not parse value for argument -e. expected a list of integers, got '0-2000000000'", e, "0-2000000000");
+		assertInvalid("Could not parse value for argument -e. expected a list of integers, got '-9223372036854775808-9223372036854775807'", e,
+			"-9223372036854775808-9223372036854775807");
+		assertEquals(ArgumentWithValue.MAX_LIST_VALUES, d.parseValue("1-" + ArgumentWithValue.MAX_LIST_VALUES).length);
+	}
+
+	private static void assertInvalid (String message, ArgumentWithValue<?> argument, String valueString) {
+		try {
+			argument.parseValue(valueString);
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException e) {
+			// Expected state
+			assertEquals(message, e.getMessage());
+		}
+	}
+
 	@Test
 	public void testArgumentWithValueMissing () {
 		Arguments args = new Arguments();
@@ -92,6 +167,22 @@ public class ArgumentsTest {
 		}
 	}
 
+	@Test
+	public void testInvalidValueReportedFirst () {
+		Arguments args = new Arguments();
+
+		args.addArgument(new IntegerArgument("-b", "B.", "<value>", false));
+		args.addArgument(new IntegerArgument("-c", "C.", "<value>", false));
+
+		try {
+			args.parse(new String[] {"-b", "x", "-d"});
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException e) {
+			// Expected state
+			assertEquals("Could not parse value for argument -b. expected an integer number, got 'x'", e.getMessage());
+		}
+	}
+
 	@Test
 	public void testNonOptional () {
 		Arguments args = new Arguments();
@@ -109,6 +200,247 @@ public class ArgumentsTest {
 		}
 	}
 
+	@Test
+	public void testConstraints () {
+		Arguments args = new Arguments();
+
+		Argument a = args.addArgument(new Argument("-a", "A.", true));
+		Argument b = args.addArgument(new Argument("-b", "B.", true));
+		Argument c = args.addArgument(new Argument("-c", "C.", true));
+		StringArgument d = args.addArgument(new StringArgument("-d", "D.", "<value>", true));
+		StringArgument e = args.addArgument(new StringArgument("-e", "E.", "<value>", true));
+
+		args.addMutuallyExclusive(a, b, c);
+		args.addRequires(d, e);
+		args.addAtLeastOneOf(d, e);
+
+		ParsedArguments parsed = args.parse(new String[] {"-a", "-d", "d", "-e", "e"});
+		assertTrue(parsed.has(a));
+		assertEquals("d", parsed.getValue(d));
+
+		try {
+			args.parse(new String[] {"-a", "-c"});
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException ex) {
+			// Expected state
+			assertEquals("The following arguments can not be given together: -a, -c.\n" + "Expected at least one of the following arguments: -d, -e.",
+				ex.getMessage());
+		}
+
+		try {
+			args.parse(new String[] {"-d", "d"});
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException ex) {
+			// Expected state
+			assertEquals("Argument -d requires the following arguments: -e.", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testConstraintsManyArguments () {
+		Arguments args = new Arguments();
+
+		Argument[] all = new Argument[130];
+		for (int i = 0; i < all.length; i++)
+			all[i] = args.addArgument(new Argument("-a" + i, "A.", i % 64 != 63));
+		args.addMutuallyExclusive(all[0], all[70], all[129]);
+
+		args.parse(new String[] {"-a63", "-a127", "-a70"});
+
+		try {
+			args.parse(new String[] {"-a63", "-a129", "-a0"});
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException ex) {
+			// Expected state
+			assertEquals("Expected the following non-optional arguments: -a127.\n" + "The following arguments can not be given together: -a0, -a129.",
+				ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testNonOptionalAfterManyOptionalArguments () {
+		Arguments args = new Arguments();
+
+		for (int i = 0; i < 200; i++)
+			args.addArgument(new Argument("-a" + i, "A.", i != 199));
+
+		args.parse(new String[] {"-a199"});
+
+		try {
+			args.parse(new String[] {"-a0"});
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException ex) {
+			// Expected state
+			assertEquals("Expected the following non-optional arguments: -a199.", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testConstraintArgumentNotAdded () {
+		Arguments args = new Arguments();
+		Argument a = args.addArgument(new Argument("-a", "A.", true));
+		try {
+			args.addMutuallyExclusive(a, new Argument("-b", "B.", true));
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException ex) {
+			// Expected state
+		}
+	}
+
+	@Test
+	public void testPositionalArguments () {
+		Arguments args = new Arguments();
+
+		Argument v = args.addArgument(new Argument("-v", "V.", true));
+		PositionalArgument<Integer> count = args.addArgument(new PositionalArgument<>(new IntegerArgument("count", "Count.", "<count>", false), Arity.ONE));
+		PositionalArgument<String> output = args
+			.addArgument(new PositionalArgument<>(new StringArgument("output", "Output.", "<output>", false), Arity.OPTIONAL));
+		PositionalArgument<String> files = args
+			.addArgument(new PositionalArgument<>(new StringArgument("files", "Files.", "<file>", false), Arity.ONE_OR_MORE));
+
+		ParsedArguments parsed = args.parse(new String[] {"12", "-v", "a", "b", "--", "-c"});
+		assertTrue(parsed.has(v));
+		assertEquals((Integer)12, parsed.getValue(count));
+		assertEquals("a", parsed.getValue(output));
+		assertEquals(2, parsed.getValueCount(files));
+		Iterator<String> values = parsed.getValues(files).iterator();
+		assertEquals("b", values.next());
+		assertEquals("-c", values.next());
+		assertTrue(!values.hasNext());
+
+		parsed = args.parse(new String[] {"12", "a"});
+		assertTrue(!parsed.has(output));
+		assertEquals(1, parsed.getValueCount(files));
+
+		try {
+			args.parse(new String[] {"12"});
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException e) {
+			// Expected state
+			assertEquals("Expected the following positional arguments: files.", e.getMessage());
+		}
+
+		try {
+			args.parse(new String[] {"12", "a", "-x"});
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException e) {
+			// Expected state
+			assertEquals("Unknown argument -x", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testPositionalArgumentsPacked () {
+		Arguments args = new Arguments();
+
+		PositionalArgument<Integer> numbers = args
+			.addArgument(new PositionalArgument<>(new IntegerArgument("numbers", "Numbers.", "<number>", false), Arity.ZERO_OR_MORE));
+
+		String[] argv = new String[100000];
+		for (int i = 0; i < argv.length; i++)
+			argv[i] = Integer.toString(i);
+
+		ParsedArguments parsed = args.parse(argv);
+		PackedValues<Integer> packed = parsed.getPackedValues(numbers);
+		assertEquals(argv.length, packed.size());
+		assertEquals("99999", new String(packed.getChars(), packed.getOffset(99999), packed.getLength(99999)));
+		int i = 0;
+		for (int value : packed)
+			assertEquals(i++, value);
+
+		parsed = args.parse(new String[0]);
+		assertEquals(0, parsed.getPackedValues(numbers).size());
+		assertTrue(!parsed.has(numbers));
+	}
+
+	@Test
+	public void testSingleVariadicArgument () {
+		Arguments args = new Arguments();
+		args.addArgument(new PositionalArgument<>(new StringArgument("a", "A.", "<a>", false), Arity.ZERO_OR_MORE));
+		try {
+			args.addArgument(new PositionalArgument<>(new StringArgument("b", "B.", "<b>", false), Arity.ONE_OR_MORE));
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException e) {
+			// Expected state
+		}
+	}
+
+	@Test
+	public void testParseAsync () {
+		Arguments args = new Arguments();
+
+		// Both values can only be parsed if their parsers run concurrently, as each waits for the other.
+		CountDownLatch latch = new CountDownLatch(2);
+		LatchArgument a = args.addArgument(new LatchArgument("-a", latch));
+		LatchArgument b = args.addArgument(new LatchArgument("-b", latch));
+		IntegerArgument c = args.addArgument(new IntegerArgument("-c", "C.", "<value>", false));
+		Argument d = args.addArgument(new Argument("-d", "D.", true));
+
+		ParsedArguments parsed = args.parse(new String[] {"-a", "a", "-b", "b", "-c", "123", "-d"}, 10, TimeUnit.SECONDS);
+
+		assertEquals("a", parsed.getValue(a));
+		assertEquals("b", parsed.getValue(b));
+		assertEquals((Integer)123, parsed.getValue(c));
+		assertTrue(parsed.has(d));
+	}
+
+	@Test
+	public void testParseAsyncErrors () {
+		Arguments args = new Arguments();
+
+		// The latch is never released, so parsing -a times out.
+		args.addArgument(new LatchArgument("-a", new CountDownLatch(2)));
+		args.addArgument(new IntegerArgument("-b", "B.", "<value>", false));
+		args.addArgument(new BooleanArgument("-c", "C.", "<value>", false));
+
+		try {
+			args.parse(new String[] {"-a", "a", "-b", "x", "-c", "y"}, 100, TimeUnit.MILLISECONDS);
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException e) {
+			// Expected state
+			assertEquals("Could not parse value for argument -a within 100 milliseconds.\n"
+				+ "Could not parse value for argument -b. expected an integer number, got 'x'\n"
+				+ "Could not parse value for argument -c. Expected 'true' or 'false', got 'y'", e.getMessage());
+			assertEquals(2, e.getSuppressed().length);
+		}
+	}
+
+	@Test
+	public void testParseAsyncRejected () {
+		Arguments args = new Arguments();
+		args.addArgument(new IntegerArgument("-a", "A.", "<value>", false));
+
+		ExecutorService executor = Arguments.newValueExecutor();
+		executor.shutdown();
+		try {
+			args.parse(new String[] {"-a", "1"}, executor, 10, TimeUnit.SECONDS);
+			assertTrue("Expect an ArgumentException to be thrown.", false);
+		} catch (ArgumentException e) {
+			// Expected state
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+	}
+
+	private static class LatchArgument extends StringArgument {
+		private final CountDownLatch latch;
+
+		public LatchArgument (String form, CountDownLatch latch) {
+			super(form, "Counts down the latch and waits for it before returning its value.", "<value>", false);
+			this.latch = latch;
+		}
+
+		@Override
+		public String parseValue (String valueString) {
+			latch.countDown();
+			try {
+				if (!latch.await(10, TimeUnit.SECONDS)) throw new ArgumentException("Timed out waiting for latch of " + getForms()[0]);
+			} catch (InterruptedException e) {
+				throw new ArgumentException("Interrupted", e);
+			}
+			return valueString;
+		}
+	}
+
 	@Test
 	public void testPrintHelp () throws UnsupportedEncodingException {
 		Arguments args = new Arguments();
@@ -125,4 +457,14 @@ public class ArgumentsTest {
 				+ "--input <path>    to long. So we stretch it out to multiple\n" + "                  lines. Hopefully this is readable.\n" + "\n" + "",
 			args.printHelp());
 	}
+
+	@Test
+	public void testPrintHelpPositional () {
+		Arguments args = new Arguments();
+		args.addArgument(new Argument(new String[] {"-v", "--verbose"}, "Log things verbosely. Optional.", true));
+		args.addArgument(new PositionalArgument<>(new StringArgument("output", "The output.", "<output>", false), Arity.ONE));
+		args.addArgument(new PositionalArgument<>(new StringArgument("files", "The files.", "<file>", false), Arity.ZERO_OR_MORE));
+		assertEquals("-v                Log things verbosely. Optional.\n" + "--verbose         \n" + "\n" + "<output>          The output.\n" + "\n"
+			+ "<file>...         The files.\n" + "\n", args.printHelp());
+	}
 }